@@ -5,6 +5,7 @@ import com.study.spring.mvcframwork.annotation.MyAutowired;
 import com.study.spring.mvcframwork.annotation.MyController;
 import com.study.spring.mvcframwork.annotation.MyRequestMapping;
 import com.study.spring.mvcframwork.annotation.MyRequestParam;
+import com.study.spring.mvcframwork.webmvc.MyModelAndView;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -13,18 +14,14 @@ import java.io.IOException;
 @MyController
 @MyRequestMapping("/demo")
 public class DemoController {
+    //生成的Bean工厂直接给字段赋值，所以不能是private；保留无参构造方法，v2的DispatcherServlet也能加载
     @MyAutowired
-    private IDemoService demoService;
+    IDemoService demoService;
 
     @MyRequestMapping("/query")
-    public void query(HttpServletRequest req, HttpServletResponse resp,
+    public MyModelAndView query(HttpServletRequest req, HttpServletResponse resp,
                       @MyRequestParam("name") String name){
-        String result = "Hello, " + name;
-        try {
-            resp.getWriter().write(result);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        return new MyModelAndView("query").addObject("result", demoService.get(name));
     }
 
     @MyRequestMapping("/add")
@@ -0,0 +1,26 @@
+package com.study.spring.mvcframwork.accesslog;
+
+//访问日志事件，由RingBuffer预先分配并循环复用，请求线程只写入字段，不创建新对象
+public class MyAccessLogEvent {
+    long timestamp;
+    String method;
+    String route;
+    int status;
+    long latencyMillis;
+    long bytes;
+
+    void set(long timestamp, String method, String route, int status, long latencyMillis, long bytes) {
+        this.timestamp = timestamp;
+        this.method = method;
+        this.route = route;
+        this.status = status;
+        this.latencyMillis = latencyMillis;
+        this.bytes = bytes;
+    }
+
+    //释放引用，避免槽位长期持有请求的字符串
+    void clear() {
+        this.method = null;
+        this.route = null;
+    }
+}
@@ -0,0 +1,73 @@
+package com.study.spring.mvcframwork.accesslog;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 访问日志格式，启动时解析一次
+ * %t 时间  %m 请求方法  %r 匹配到的Handler路径，未匹配时为-  %s 状态码  %D 耗时(毫秒)  %b 响应字节数  %% 百分号
+ * 只在后台写日志线程中使用，非线程安全
+ */
+public class MyAccessLogFormat {
+    public static final String DEFAULT_PATTERN = "%t %m %r %s %D %b";
+
+    private static final char LITERAL = 0;
+
+    private List<Character> tokens = new ArrayList<Character>();
+    private List<String> literals = new ArrayList<String>();
+
+    private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+    private Date date = new Date();
+
+    public MyAccessLogFormat(String pattern) {
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c != '%' || i == pattern.length() - 1) {
+                literal.append(c);
+                continue;
+            }
+            char token = pattern.charAt(++i);
+            switch (token) {
+                case 't': case 'm': case 'r': case 's': case 'D': case 'b':
+                    addLiteral(literal);
+                    tokens.add(token);
+                    literals.add(null);
+                    break;
+                case '%':
+                    literal.append('%');
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown access log pattern token : %" + token);
+            }
+        }
+        addLiteral(literal);
+    }
+
+    private void addLiteral(StringBuilder literal) {
+        if (literal.length() == 0) {return;}
+        tokens.add(LITERAL);
+        literals.add(literal.toString());
+        literal.setLength(0);
+    }
+
+    public void format(MyAccessLogEvent event, StringBuilder out) {
+        for (int i = 0; i < tokens.size(); i++) {
+            switch (tokens.get(i)) {
+                case 't':
+                    date.setTime(event.timestamp);
+                    out.append(dateFormat.format(date));
+                    break;
+                case 'm': out.append(event.method); break;
+                case 'r': out.append(event.route); break;
+                case 's': out.append(event.status); break;
+                case 'D': out.append(event.latencyMillis); break;
+                case 'b': out.append(event.bytes); break;
+                default: out.append(literals.get(i));
+            }
+        }
+        out.append('\n');
+    }
+}
@@ -0,0 +1,163 @@
+package com.study.spring.mvcframwork.accesslog;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * 记录响应状态码和输出大小
+ * 通过getWriter输出时按响应的字符编码计算字节数
+ */
+public class MyAccessLogResponseWrapper extends HttpServletResponseWrapper {
+    private int status = SC_OK;
+    private long bytes = 0;
+
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+    private Charset charset;
+    private boolean utf8;
+    private boolean singleByte;
+
+    public MyAccessLogResponseWrapper(HttpServletResponse response) {
+        super(response);
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public void setStatus(int sc) {
+        this.status = sc;
+        super.setStatus(sc);
+    }
+
+    @Override
+    public void setStatus(int sc, String sm) {
+        this.status = sc;
+        super.setStatus(sc, sm);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        this.status = sc;
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        this.status = sc;
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        this.status = SC_MOVED_TEMPORARILY;
+        super.sendRedirect(location);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            final ServletOutputStream out = super.getOutputStream();
+            outputStream = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    bytes++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    bytes += len;
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    out.flush();
+                }
+            };
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            //getWriter之后字符编码不会再改变
+            charset = Charset.forName(getCharacterEncoding());
+            utf8 = "UTF-8".equals(charset.name());
+            singleByte = charset.newEncoder().maxBytesPerChar() == 1;
+            writer = new PrintWriter(new FilterWriter(super.getWriter()) {
+                @Override
+                public void write(int c) throws IOException {
+                    super.write(c);
+                    bytes += encodedLength(String.valueOf((char) c), 0, 1);
+                }
+
+                @Override
+                public void write(char[] cbuf, int off, int len) throws IOException {
+                    super.write(cbuf, off, len);
+                    bytes += encodedLength(CharBuffer.wrap(cbuf), off, len);
+                }
+
+                @Override
+                public void write(String str, int off, int len) throws IOException {
+                    super.write(str, off, len);
+                    bytes += encodedLength(str, off, len);
+                }
+            });
+        }
+        return writer;
+    }
+
+    /**
+     * 重置缓冲区时，已丢弃的输出不再计入大小
+     */
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        bytes = 0;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        bytes = 0;
+        status = SC_OK;
+    }
+
+    private long encodedLength(CharSequence chars, int off, int len) {
+        if (utf8) {
+            long length = 0;
+            for (int i = off; i < off + len; i++) {
+                char c = chars.charAt(i);
+                if (c < 0x80) {
+                    length++;
+                } else if (c < 0x800) {
+                    length += 2;
+                } else if (Character.isHighSurrogate(c)) {
+                    //代理对共4个字节，全部算在高位上
+                    length += 4;
+                } else if (!Character.isLowSurrogate(c)) {
+                    length += 3;
+                }
+            }
+            return length;
+        }
+        if (singleByte) {
+            return len;
+        }
+        return charset.encode(CharBuffer.wrap(chars, off, off + len)).remaining();
+    }
+}
@@ -0,0 +1,96 @@
+package com.study.spring.mvcframwork.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 多生产者、单消费者的无锁环形缓冲区
+ * 请求线程通过CAS抢占序号后写入预分配的槽位，缓冲区满时直接丢弃并计数，不阻塞请求线程
+ */
+public class MyAccessLogRingBuffer {
+    //向上取整为2的幂后不能溢出int
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final MyAccessLogEvent[] slots;
+    private final int mask;
+
+    //每个槽位已发布的序号，消费者据此判断槽位是否写入完成
+    private final AtomicLongArray published;
+
+    //下一个可抢占的序号
+    private final AtomicLong tail = new AtomicLong(0);
+
+    //消费者下一个要读取的序号
+    private final AtomicLong head = new AtomicLong(0);
+
+    private final AtomicLong dropped = new AtomicLong(0);
+
+    public MyAccessLogRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("The capacity must be in (0, " + MAX_CAPACITY + "] : " + capacity);
+        }
+        //容量向上取整为2的幂，用位运算代替取模
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {size <<= 1;}
+
+        this.slots = new MyAccessLogEvent[size];
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new MyAccessLogEvent();
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * 请求线程调用，缓冲区满时返回false
+     */
+    public boolean publish(String method, String route, int status, long latencyMillis, long bytes) {
+        long seq;
+        do {
+            seq = tail.get();
+            if (seq - head.get() >= slots.length) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!tail.compareAndSet(seq, seq + 1));
+
+        int index = (int) (seq & mask);
+        slots[index].set(System.currentTimeMillis(), method, route, status, latencyMillis, bytes);
+        published.lazySet(index, seq);
+        return true;
+    }
+
+    /**
+     * 后台线程调用，批量取出最多maxBatch个事件交给handler，返回取出的数量
+     */
+    public int drain(EventHandler handler, int maxBatch) throws Exception {
+        long seq = head.get();
+        int count = 0;
+        while (count < maxBatch) {
+            int index = (int) (seq & mask);
+            if (published.get(index) != seq) {break;}
+
+            MyAccessLogEvent event = slots[index];
+            handler.onEvent(event);
+            event.clear();
+            seq++;
+            count++;
+            //逐个释放槽位，让生产者尽早复用
+            head.lazySet(seq);
+        }
+        return count;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    public interface EventHandler {
+        void onEvent(MyAccessLogEvent event) throws Exception;
+    }
+}
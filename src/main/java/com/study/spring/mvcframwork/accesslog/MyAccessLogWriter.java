@@ -0,0 +1,179 @@
+package com.study.spring.mvcframwork.accesslog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 后台写日志线程，批量从RingBuffer中取出事件，通过FileChannel追加到文件
+ * 文件超过maxFileSize后重命名为 文件名.yyyyMMddHHmmssSSS 并新建文件
+ */
+public class MyAccessLogWriter implements Runnable, MyAccessLogRingBuffer.EventHandler {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final long ERROR_BACKOFF_MILLIS = 1000;
+
+    private final MyAccessLogRingBuffer ringBuffer;
+    private final MyAccessLogFormat format;
+    private final File file;
+    private final long maxFileSize;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+
+    private final StringBuilder batch = new StringBuilder(8192);
+    private FileChannel channel;
+    private long reportedDropped = 0;
+    //写文件失败丢弃的事件数，下次写入成功时报告
+    private long lostEvents = 0;
+    private boolean rollable = true;
+
+    private volatile boolean running = true;
+    private Thread thread;
+
+    public MyAccessLogWriter(MyAccessLogRingBuffer ringBuffer, MyAccessLogFormat format, File file,
+                             long maxFileSize, int batchSize, long flushIntervalMillis) {
+        //flushIntervalMillis为0时空闲会空转，batchSize为0时永远取不出事件
+        if (maxFileSize <= 0 || batchSize <= 0 || flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("The maxFileSize, batchSize and flushIntervalMillis must be positive : "
+                    + maxFileSize + ", " + batchSize + ", " + flushIntervalMillis);
+        }
+        this.ringBuffer = ringBuffer;
+        this.format = format;
+        this.file = file;
+        this.maxFileSize = maxFileSize;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    public void start() throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Can not create access log directory : " + parent);
+        }
+        openChannel();
+        thread = new Thread(this, "access-log-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 停止后台线程，并把缓冲区中剩余的事件写完
+     */
+    public void stop() {
+        running = false;
+        if (thread == null) {return;}
+        //不能用interrupt唤醒，会导致FileChannel被关闭
+        LockSupport.unpark(thread);
+        try {
+            thread.join(flushIntervalMillis * 10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                if (drainOnce() == 0) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis));
+                }
+            }
+            while (drainOnce() > 0) {
+                //停止前写完剩余事件
+            }
+        } finally {
+            closeChannel();
+        }
+    }
+
+    /**
+     * 取出一批事件写入文件，写入失败时丢弃这一批并计数，关闭文件后等待一段时间，下一批重新打开文件
+     */
+    private int drainOnce() {
+        int count = 0;
+        try {
+            count = ringBuffer.drain(this, batchSize);
+
+            long dropped = ringBuffer.getDroppedCount();
+            if (dropped != reportedDropped) {
+                batch.append("# access log buffer full, dropped ").append(dropped - reportedDropped).append(" events\n");
+            }
+            if (lostEvents > 0) {
+                batch.append("# access log write failed, lost ").append(lostEvents).append(" events\n");
+            }
+
+            if (batch.length() > 0) {
+                write(batch);
+                reportedDropped = dropped;
+                lostEvents = 0;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            lostEvents += count;
+            closeChannel();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.max(flushIntervalMillis, ERROR_BACKOFF_MILLIS)));
+        } finally {
+            batch.setLength(0);
+        }
+        return count;
+    }
+
+    @Override
+    public void onEvent(MyAccessLogEvent event) {
+        format.format(event, batch);
+    }
+
+    private void write(CharSequence content) throws IOException {
+        if (channel == null) {
+            openChannel();
+        }
+        if (rollable && channel.size() >= maxFileSize) {
+            roll();
+        }
+        ByteBuffer buffer = UTF_8.encode(content.toString());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * 重命名为 文件名.yyyyMMddHHmmssSSS，同一毫秒内多次滚动时再加序号，不覆盖已有文件
+     * 重命名失败后不再滚动，继续写入当前文件
+     */
+    private void roll() throws IOException {
+        closeChannel();
+        String prefix = file.getPath() + "." + new SimpleDateFormat("yyyyMMddHHmmssSSS").format(new Date());
+        File rolled = new File(prefix);
+        for (int i = 1; rolled.exists(); i++) {
+            rolled = new File(prefix + "-" + i);
+        }
+        if (!file.renameTo(rolled)) {
+            rollable = false;
+            System.err.println("Can not roll access log file : " + file + ", rolling is disabled");
+        }
+        openChannel();
+    }
+
+    private void openChannel() throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+        channel.position(channel.size());
+    }
+
+    private void closeChannel() {
+        if (channel == null) {return;}
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        channel = null;
+    }
+}
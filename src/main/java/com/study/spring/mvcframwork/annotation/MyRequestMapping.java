@@ -7,4 +7,7 @@ import java.lang.annotation.*;
 @Documented
 public @interface MyRequestMapping {
     String value() default "";
+
+    //超时时间(毫秒)，-1使用全局配置request.timeoutMillis，0表示不超时，只对方法有效
+    long timeout() default -1;
 }
@@ -0,0 +1,22 @@
+package com.study.spring.mvcframwork.beans;
+
+/**
+ * 编译期由MyBeanFactoryProcessor为每个@MyController、@MyService生成的Bean工厂
+ * 构造和依赖注入都是直接的Java代码，不需要反射
+ * 依赖的beanName在编译期已经检查过，运行时按名称取即可
+ */
+public interface MyBeanFactory<T> {
+
+    String getBeanName();
+
+    Class<T> getBeanType();
+
+    //除beanName之外注册到IOC容器的key，即@MyService实现的接口全名
+    String[] getAliases();
+
+    //调用构造方法，构造参数通过registry获取
+    T create(MyBeanRegistry registry);
+
+    //字段注入，所有Bean创建完成后调用
+    void inject(T bean, MyBeanRegistry registry);
+}
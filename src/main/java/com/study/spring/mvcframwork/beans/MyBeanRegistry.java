@@ -0,0 +1,7 @@
+package com.study.spring.mvcframwork.beans;
+
+public interface MyBeanRegistry {
+
+    //找不到对应的Bean时抛出异常，不会返回null
+    Object getBean(String beanName);
+}
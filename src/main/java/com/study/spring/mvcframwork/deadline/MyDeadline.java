@@ -0,0 +1,108 @@
+package com.study.spring.mvcframwork.deadline;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求级别的截止时间，保存在当前线程中
+ * Controller以及通过@MyAutowired注入的Service都可以用MyDeadline.current()查询剩余时间，
+ * 或者调用checkCurrent()在超时后尽早退出
+ * 开启中断时，到期后会中断请求线程，阻塞在sleep、wait、Future.get等方法上的调用会立即返回
+ */
+public final class MyDeadline {
+    private static final ThreadLocal<MyDeadline> CURRENT = new ThreadLocal<MyDeadline>();
+
+    private final long timeoutMillis;
+    private final long deadlineNanos;
+    private final Thread thread;
+
+    //以下字段由this保护，保证finish之后不会再中断线程
+    private boolean finished = false;
+    private boolean interrupted = false;
+    private ScheduledFuture<?> timer;
+
+    private MyDeadline(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.thread = Thread.currentThread();
+    }
+
+    /**
+     * 在当前线程上开始计时，scheduler为null时只能协作式检查，不会中断线程
+     */
+    public static MyDeadline start(long timeoutMillis, ScheduledExecutorService scheduler) {
+        final MyDeadline deadline = new MyDeadline(timeoutMillis);
+        if (scheduler != null) {
+            ScheduledFuture<?> timer = scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    deadline.interrupt();
+                }
+            }, timeoutMillis, TimeUnit.MILLISECONDS);
+            synchronized (deadline) {
+                deadline.timer = timer;
+            }
+        }
+        CURRENT.set(deadline);
+        return deadline;
+    }
+
+    //当前请求的截止时间，没有设置超时时返回null
+    public static MyDeadline current() {
+        return CURRENT.get();
+    }
+
+    //当前请求已超时则抛出MyDeadlineExceededException
+    public static void checkCurrent() {
+        MyDeadline deadline = CURRENT.get();
+        if (deadline != null) {
+            deadline.check();
+        }
+    }
+
+    public void check() {
+        if (isExpired()) {
+            throw new MyDeadlineExceededException(timeoutMillis);
+        }
+    }
+
+    public boolean isExpired() {
+        return System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    public long getRemainingMillis() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    //是否由本次截止时间中断过请求线程
+    public synchronized boolean isInterrupted() {
+        return interrupted;
+    }
+
+    private synchronized void interrupt() {
+        if (finished) {return;}
+        interrupted = true;
+        thread.interrupt();
+    }
+
+    /**
+     * 请求线程调用，停止计时并清除本次设置的中断标记，避免影响容器复用该线程
+     */
+    public void finish() {
+        synchronized (this) {
+            finished = true;
+            if (timer != null) {
+                timer.cancel(false);
+            }
+        }
+        CURRENT.remove();
+        if (isInterrupted()) {
+            Thread.interrupted();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.study.spring.mvcframwork.deadline;
+
+//请求超过截止时间，DispatcherServlet捕获后返回504
+public class MyDeadlineExceededException extends RuntimeException {
+
+    public MyDeadlineExceededException(long timeoutMillis) {
+        super("The request exceeded its deadline of " + timeoutMillis + " ms");
+    }
+}
@@ -0,0 +1,405 @@
+package com.study.spring.mvcframwork.processor;
+
+import com.study.spring.mvcframwork.annotation.MyAutowired;
+import com.study.spring.mvcframwork.annotation.MyController;
+import com.study.spring.mvcframwork.annotation.MyService;
+import com.study.spring.mvcframwork.beans.MyBeanFactory;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 编译期为@MyController、@MyService生成MyBeanFactory实现类 XxxBean_MyBeanFactory
+ * 同时检查所有@MyAutowired注入点：按名称或类型必须找到唯一的Bean，否则编译失败
+ * 生成的工厂类登记在META-INF/services中，DispatcherServlet通过ServiceLoader加载
+ *
+ * 增量编译(例如IDE只重新编译修改过的文件)时，本次编译看不到的Bean从已有的services文件中读取：
+ * 它们参与按类型查找，并保留在services文件中，但不重新生成工厂类
+ * 删除Bean类后，旧的工厂类和services条目在clean之前仍会保留在输出目录中
+ */
+@SupportedAnnotationTypes({
+        "com.study.spring.mvcframwork.annotation.MyController",
+        "com.study.spring.mvcframwork.annotation.MyService"})
+public class MyBeanFactoryProcessor extends AbstractProcessor {
+    public static final String FACTORY_SUFFIX = "_MyBeanFactory";
+
+    private static final String SERVICES_FILE = "META-INF/services/" + MyBeanFactory.class.getName();
+
+    //只在第一次发现Bean的那一轮生成，本次编译之外的Bean从已有的services文件中读取
+    private boolean generated = false;
+
+    private Types types;
+    private Messager messager;
+    private boolean hasError;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (generated || roundEnv.processingOver()) {return false;}
+
+        types = processingEnv.getTypeUtils();
+        messager = processingEnv.getMessager();
+        hasError = false;
+
+        //1、收集所有Bean，建立名称索引
+        Map<String, BeanInfo> beans = new LinkedHashMap<String, BeanInfo>();
+        Map<String, BeanInfo> keys = new LinkedHashMap<String, BeanInfo>();
+        Set<Element> current = new HashSet<Element>();
+        current.addAll(roundEnv.getElementsAnnotatedWith(MyController.class));
+        current.addAll(roundEnv.getElementsAnnotatedWith(MyService.class));
+        if (current.isEmpty()) {return false;}
+        generated = true;
+
+        collectBeans(roundEnv.getElementsAnnotatedWith(MyController.class), beans, keys, false);
+        collectBeans(roundEnv.getElementsAnnotatedWith(MyService.class), beans, keys, false);
+        collectBeans(readPreviousBeans(current), beans, keys, true);
+
+        //2、解析注入点，之前编译的Bean已经检查过
+        for (BeanInfo bean : beans.values()) {
+            if (bean.previous) {continue;}
+            resolveConstructor(bean, beans.values(), keys);
+            resolveFields(bean, beans.values(), keys);
+        }
+
+        //3、构造方法之间不能有循环依赖
+        checkConstructorCycles(beans);
+        if (hasError) {return false;}
+
+        //4、生成代码
+        try {
+            for (BeanInfo bean : beans.values()) {
+                if (bean.previous) {continue;}
+                writeFactory(bean);
+            }
+            writeServicesFile(beans.values());
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Can not generate bean factory : " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * 读取输出目录中已有的services文件，找出本次编译之外、仍然存在的Bean
+     */
+    private Set<TypeElement> readPreviousBeans(Set<Element> current) {
+        Set<TypeElement> result = new LinkedHashSet<TypeElement>();
+        CharSequence content;
+        try {
+            content = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICES_FILE)
+                    .getCharContent(true);
+        } catch (IOException e) {
+            //第一次编译，还没有services文件
+            return result;
+        }
+
+        Elements elements = processingEnv.getElementUtils();
+        for (String line : content.toString().split("\\r?\\n")) {
+            String factoryName = line.trim();
+            if (!factoryName.endsWith(FACTORY_SUFFIX)) {continue;}
+
+            String beanName = factoryName.substring(0, factoryName.length() - FACTORY_SUFFIX.length());
+            TypeElement type = elements.getTypeElement(beanName);
+            if (type == null || current.contains(type)) {continue;}
+            if (type.getAnnotation(MyController.class) == null && type.getAnnotation(MyService.class) == null) {continue;}
+            result.add(type);
+        }
+        return result;
+    }
+
+    private void collectBeans(Set<? extends Element> elements, Map<String, BeanInfo> beans, Map<String, BeanInfo> keys,
+                              boolean previous) {
+        for (Element element : elements) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "Only classes can be beans");
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            if (type.getNestingKind() != NestingKind.TOP_LEVEL || type.getModifiers().contains(Modifier.ABSTRACT)) {
+                error(type, "The bean class must be a top level, non-abstract class");
+                continue;
+            }
+
+            BeanInfo bean = new BeanInfo(type);
+            bean.previous = previous;
+            MyService service = type.getAnnotation(MyService.class);
+            if (service != null && !"".equals(service.value())) {
+                bean.name = service.value();
+            } else {
+                bean.name = toLowerFirstCase(type.getSimpleName().toString());
+            }
+            if (service != null) {
+                for (TypeMirror i : type.getInterfaces()) {
+                    bean.aliases.add(types.erasure(i).toString());
+                }
+            }
+
+            if (keys.containsKey(bean.name)) {
+                error(type, "The bean \"" + bean.name + "\" is exists");
+                continue;
+            }
+            beans.put(bean.name, bean);
+            keys.put(bean.name, bean);
+            for (String alias : bean.aliases) {
+                if (keys.containsKey(alias)) {
+                    error(type, "The \"" + alias + "\" is exists");
+                    continue;
+                }
+                keys.put(alias, bean);
+            }
+        }
+    }
+
+    private void resolveConstructor(BeanInfo bean, Iterable<BeanInfo> beans, Map<String, BeanInfo> keys) {
+        ExecutableElement selected = null;
+        ExecutableElement noArg = null;
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(bean.type.getEnclosedElements())) {
+            if (constructor.getAnnotation(MyAutowired.class) != null) {
+                if (selected != null) {
+                    error(constructor, "Only one constructor can be annotated with @MyAutowired");
+                    return;
+                }
+                selected = constructor;
+            } else if (constructor.getParameters().isEmpty()) {
+                noArg = constructor;
+            }
+        }
+        if (selected == null) {selected = noArg;}
+        if (selected == null || selected.getModifiers().contains(Modifier.PRIVATE)) {
+            error(bean.type, "The bean needs a non-private no-arg constructor or a @MyAutowired constructor");
+            return;
+        }
+
+        for (VariableElement param : selected.getParameters()) {
+            MyAutowired autowired = param.getAnnotation(MyAutowired.class);
+            BeanInfo dependency = resolve(param, autowired == null ? "" : autowired.value(), beans, keys);
+            bean.constructorTypes.add(types.erasure(param.asType()).toString());
+            bean.constructorDependencies.add(dependency);
+        }
+    }
+
+    private void resolveFields(BeanInfo bean, Iterable<BeanInfo> beans, Map<String, BeanInfo> keys) {
+        for (VariableElement field : ElementFilter.fieldsIn(bean.type.getEnclosedElements())) {
+            MyAutowired autowired = field.getAnnotation(MyAutowired.class);
+            if (autowired == null) {continue;}
+
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL)
+                    || modifiers.contains(Modifier.STATIC)) {
+                error(field, "The @MyAutowired field can not be private, final or static, use constructor injection instead");
+                continue;
+            }
+            BeanInfo dependency = resolve(field, autowired.value(), beans, keys);
+            bean.fields.add(field.getSimpleName().toString());
+            bean.fieldTypes.add(types.erasure(field.asType()).toString());
+            bean.fieldDependencies.add(dependency);
+        }
+    }
+
+    /**
+     * 按名称或类型找到唯一的Bean
+     */
+    private BeanInfo resolve(Element point, String beanName, Iterable<BeanInfo> beans, Map<String, BeanInfo> keys) {
+        TypeMirror type = point.asType();
+        if (type.getKind() != TypeKind.DECLARED) {
+            error(point, "Can not inject into type " + type);
+            return null;
+        }
+        TypeMirror required = types.erasure(type);
+
+        if (!"".equals(beanName)) {
+            BeanInfo bean = keys.get(beanName);
+            if (bean == null) {
+                error(point, "No bean named \"" + beanName + "\"");
+            } else if (!types.isAssignable(types.erasure(bean.type.asType()), required)) {
+                error(point, "The bean \"" + beanName + "\" is not a " + required);
+                return null;
+            }
+            return bean;
+        }
+
+        List<BeanInfo> candidates = new ArrayList<BeanInfo>();
+        for (BeanInfo bean : beans) {
+            if (types.isAssignable(types.erasure(bean.type.asType()), required)) {
+                candidates.add(bean);
+            }
+        }
+        if (candidates.isEmpty()) {
+            error(point, "No bean of type " + required);
+            return null;
+        }
+        if (candidates.size() > 1) {
+            List<String> names = new ArrayList<String>();
+            for (BeanInfo candidate : candidates) {
+                names.add(candidate.name);
+            }
+            error(point, "More than one bean of type " + required + " : " + names + ", use @MyAutowired(\"beanName\")");
+            return null;
+        }
+        return candidates.get(0);
+    }
+
+    private void checkConstructorCycles(Map<String, BeanInfo> beans) {
+        Set<BeanInfo> checked = new HashSet<BeanInfo>();
+        for (BeanInfo bean : beans.values()) {
+            checkConstructorCycles(bean, new ArrayList<BeanInfo>(), checked);
+        }
+    }
+
+    private void checkConstructorCycles(BeanInfo bean, List<BeanInfo> path, Set<BeanInfo> checked) {
+        if (bean == null || checked.contains(bean)) {return;}
+        if (path.contains(bean)) {
+            StringBuilder cycle = new StringBuilder();
+            for (BeanInfo item : path.subList(path.indexOf(bean), path.size())) {
+                cycle.append(item.name).append(" -> ");
+            }
+            error(bean.type, "Circular constructor dependency : " + cycle.append(bean.name));
+            return;
+        }
+        path.add(bean);
+        for (BeanInfo dependency : bean.constructorDependencies) {
+            checkConstructorCycles(dependency, path, checked);
+        }
+        path.remove(path.size() - 1);
+        checked.add(bean);
+    }
+
+    private void writeFactory(BeanInfo bean) throws IOException {
+        String packageName = getPackageName(bean.type);
+        String beanClass = bean.type.getQualifiedName().toString();
+        String factoryName = bean.type.getSimpleName() + FACTORY_SUFFIX;
+
+        Writer writer = processingEnv.getFiler()
+                .createSourceFile(packageName.isEmpty() ? factoryName : packageName + "." + factoryName, bean.type)
+                .openWriter();
+        try (PrintWriter out = new PrintWriter(writer)) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("//由" + MyBeanFactoryProcessor.class.getSimpleName() + "生成，请勿修改");
+            out.println("public final class " + factoryName
+                    + " implements com.study.spring.mvcframwork.beans.MyBeanFactory<" + beanClass + "> {");
+            out.println();
+            out.println("    @Override");
+            out.println("    public String getBeanName() {");
+            out.println("        return \"" + bean.name + "\";");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public Class<" + beanClass + "> getBeanType() {");
+            out.println("        return " + beanClass + ".class;");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public String[] getAliases() {");
+            out.print("        return new String[]{");
+            for (int i = 0; i < bean.aliases.size(); i++) {
+                out.print((i == 0 ? "\"" : ", \"") + bean.aliases.get(i) + "\"");
+            }
+            out.println("};");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public " + beanClass + " create(com.study.spring.mvcframwork.beans.MyBeanRegistry registry) {");
+            out.print("        return new " + beanClass + "(");
+            for (int i = 0; i < bean.constructorDependencies.size(); i++) {
+                out.print((i == 0 ? "" : ", ") + getBeanExpression(bean.constructorTypes.get(i), bean.constructorDependencies.get(i)));
+            }
+            out.println(");");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public void inject(" + beanClass + " bean, com.study.spring.mvcframwork.beans.MyBeanRegistry registry) {");
+            for (int i = 0; i < bean.fields.size(); i++) {
+                out.println("        bean." + bean.fields.get(i) + " = "
+                        + getBeanExpression(bean.fieldTypes.get(i), bean.fieldDependencies.get(i)) + ";");
+            }
+            out.println("    }");
+            out.println("}");
+        }
+    }
+
+    private String getBeanExpression(String type, BeanInfo dependency) {
+        return "(" + type + ") registry.getBean(\"" + dependency.name + "\")";
+    }
+
+    private void writeServicesFile(Iterable<BeanInfo> beans) throws IOException {
+        Writer writer = processingEnv.getFiler()
+                .createResource(StandardLocation.CLASS_OUTPUT, "", SERVICES_FILE)
+                .openWriter();
+        try (PrintWriter out = new PrintWriter(writer)) {
+            for (BeanInfo bean : beans) {
+                String packageName = getPackageName(bean.type);
+                String factoryName = bean.type.getSimpleName() + FACTORY_SUFFIX;
+                out.println(packageName.isEmpty() ? factoryName : packageName + "." + factoryName);
+            }
+        }
+    }
+
+    private String getPackageName(TypeElement type) {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        return pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+    }
+
+    private void error(Element element, String message) {
+        hasError = true;
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private String toLowerFirstCase(String simpleName) {
+        char[] chars = simpleName.toCharArray();
+        chars[0] = Character.toLowerCase(chars[0]);
+        return String.valueOf(chars);
+    }
+
+    private static class BeanInfo {
+        private final TypeElement type;
+        private String name;
+        private List<String> aliases = new ArrayList<String>();
+        //之前编译生成过工厂类，本次只参与查找
+        private boolean previous;
+
+        private List<String> constructorTypes = new ArrayList<String>();
+        private List<BeanInfo> constructorDependencies = new ArrayList<BeanInfo>();
+
+        private List<String> fields = new ArrayList<String>();
+        private List<String> fieldTypes = new ArrayList<String>();
+        private List<BeanInfo> fieldDependencies = new ArrayList<BeanInfo>();
+
+        BeanInfo(TypeElement type) {
+            this.type = type;
+        }
+    }
+}
@@ -1,6 +1,19 @@
 package com.study.spring.mvcframwork.servlet.v3;
 
+import com.study.spring.mvcframwork.accesslog.MyAccessLogFormat;
+import com.study.spring.mvcframwork.accesslog.MyAccessLogResponseWrapper;
+import com.study.spring.mvcframwork.accesslog.MyAccessLogRingBuffer;
+import com.study.spring.mvcframwork.accesslog.MyAccessLogWriter;
 import com.study.spring.mvcframwork.annotation.*;
+import com.study.spring.mvcframwork.beans.MyBeanFactory;
+import com.study.spring.mvcframwork.beans.MyBeanRegistry;
+import com.study.spring.mvcframwork.deadline.MyDeadline;
+import com.study.spring.mvcframwork.deadline.MyDeadlineExceededException;
+import com.study.spring.mvcframwork.startup.MyStartupMetrics;
+import com.study.spring.mvcframwork.startup.MyWarmupRequests;
+import com.study.spring.mvcframwork.webmvc.MyModelAndView;
+import com.study.spring.mvcframwork.webmvc.MyView;
+import com.study.spring.mvcframwork.webmvc.MyViewResolver;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
@@ -11,21 +24,32 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class DispatcherServlet extends HttpServlet {
 
+    //匹配到的Handler路径，保存在request中供访问日志使用
+    private static final String ROUTE_ATTRIBUTE = DispatcherServlet.class.getName() + ".ROUTE";
+
+    //未匹配到Handler时访问日志中的路径，避免记录任意url
+    private static final String UNMATCHED_ROUTE = "-";
+
     //保存一个url和Method的关系
     public class Handler{
         //必须把url放到HandlerMapping中，才可形成对应关系，而不是把对应关系强加给Map
         private Pattern urlPattern;
         private Method method;
         private Object controller;
+        //超时时间(毫秒)，0表示不超时
+        private long timeoutMillis;
 
 
         public Pattern getUrlPattern() {
@@ -40,13 +64,18 @@ public class DispatcherServlet extends HttpServlet {
             return controller;
         }
 
+        public long getTimeoutMillis() {
+            return timeoutMillis;
+        }
+
         //形参列表，参数的名字作为key，参数的顺序，位置作为值
 //        private Map<String, Integer> paramIndexMapping;
 
-        public Handler(Pattern urlPattern, Object controller, Method method) {
+        public Handler(Pattern urlPattern, Object controller, Method method, long timeoutMillis) {
             this.urlPattern = urlPattern;
             this.method = method;
             this.controller = controller;
+            this.timeoutMillis = timeoutMillis;
 
         }
 
@@ -58,8 +87,10 @@ public class DispatcherServlet extends HttpServlet {
     //保存application.properties配置文件中的内容
     private Properties contextConfig = new Properties();
 
-    //保存扫描的所有类名
-    private List<String> classNames = new ArrayList<>();
+    //编译期生成的Bean工厂，beanName作为key
+    private Map<String, MyBeanFactory<?>> beanFactories = new LinkedHashMap<>();
+
+    private IocBeanRegistry beanRegistry = new IocBeanRegistry();
 
     //IOC容器
     private Map<String, Object> ioc = new HashMap<>();
@@ -68,6 +99,20 @@ public class DispatcherServlet extends HttpServlet {
     //handlerMapping功能是把url和method对应关系，已经具备Map的功能
     private List<Handler> handlerMapping = new ArrayList<Handler>();
 
+    //视图解析器，未配置templateRoot时为null
+    private MyViewResolver viewResolver;
+
+    //访问日志，未开启时为null
+    private MyAccessLogRingBuffer accessLogBuffer;
+    private MyAccessLogWriter accessLogWriter;
+
+    //到期后中断请求线程的定时器，未开启request.timeoutInterrupt时为null
+    private ScheduledExecutorService deadlineScheduler;
+
+    //启动后一段时间内的请求统计，汇总输出后置为null
+    private volatile MyStartupMetrics startupMetrics;
+    private Timer startupMetricsTimer;
+
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
         this.doPost(req, resp);
@@ -75,22 +120,92 @@ public class DispatcherServlet extends HttpServlet {
 
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        if(accessLogBuffer == null && startupMetrics == null){
+            process(req, resp);
+            return;
+        }
+
+        long start = System.nanoTime();
+        MyStartupMetrics metrics = startupMetrics;
+        if(metrics != null){
+            metrics.requestStarted(start);
+        }
+        MyAccessLogResponseWrapper wrapper = accessLogBuffer == null ? null : new MyAccessLogResponseWrapper(resp);
+        try {
+            process(req, wrapper == null ? resp : wrapper);
+        } finally {
+            long end = System.nanoTime();
+            if(wrapper != null){
+                Object route = req.getAttribute(ROUTE_ATTRIBUTE);
+                accessLogBuffer.publish(req.getMethod(), route == null ? UNMATCHED_ROUTE : (String) route,
+                        wrapper.getStatus(), (end - start) / 1000000, wrapper.getBytes());
+            }
+            if(metrics != null){
+                metrics.record(start, end);
+            }
+        }
+    }
+
+    //输出一次启动统计，由定时器在窗口结束时调用，或在destroy时调用
+    private void reportStartupMetrics() {
+        MyStartupMetrics metrics = startupMetrics;
+        if(metrics == null){return;}
+
+        startupMetrics = null;
+        String summary = metrics.report(System.nanoTime());
+        if(summary != null){
+            log(summary);
+        }
+    }
+
+    private void process(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         //6、调用，运行阶段
         try {
             doDispatch(req, resp);
         } catch (Exception e) {
             e.printStackTrace();
-            resp.getWriter().write("500 Excetion, Detail : "+ Arrays.toString(e.getStackTrace()));
+            if(resp.isCommitted()){return;}
+            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            writeMessage(resp, "500 Excetion, Detail : "+ Arrays.toString(e.getStackTrace()));
+        }
+    }
+
+    //Handler可能已经调用过getOutputStream，此时不能再用getWriter
+    private void writeMessage(HttpServletResponse resp, String message) throws IOException {
+        try {
+            resp.getWriter().write(message);
+        } catch (IllegalStateException e) {
+            resp.getOutputStream().write(message.getBytes(resp.getCharacterEncoding()));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if(startupMetricsTimer != null){
+            startupMetricsTimer.cancel();
         }
+        reportStartupMetrics();
+        if(accessLogWriter != null){
+            accessLogWriter.stop();
+        }
+        if(deadlineScheduler != null){
+            deadlineScheduler.shutdownNow();
+        }
+        super.destroy();
     }
 
     private void doDispatch(HttpServletRequest req, HttpServletResponse resp) throws Exception {
         Handler handler = getHandler(req);
         if(handler == null){
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
             resp.getWriter().write("404 Not Found");
             return;
         }
+        req.setAttribute(ROUTE_ATTRIBUTE, handler.getUrlPattern().pattern());
+        doDispatch(handler, req, resp);
+    }
 
+    private void doDispatch(Handler handler, HttpServletRequest req, HttpServletResponse resp) throws Exception {
         //获得方法的形参列表
         Class<?>[] paramTypes = handler.method.getParameterTypes();
         Object[] paramValues = new Object[paramTypes.length];
@@ -123,12 +238,67 @@ public class DispatcherServlet extends HttpServlet {
 
 
 
-        Object returnValue = handler.method.invoke(handler.controller, paramValues);
+        Object returnValue = invokeHandler(handler, resp, paramValues);
         if(returnValue == null || returnValue instanceof Void){return;}
+        if(returnValue instanceof MyModelAndView){
+            processDispatchResult(resp, (MyModelAndView) returnValue);
+            return;
+        }
         resp.getWriter().write(returnValue.toString());
 
     }
 
+    /**
+     * 在截止时间内调用Controller方法，超时后返回504，剩余的渲染不再执行
+     * 返回null表示已超时或方法没有返回值
+     */
+    private Object invokeHandler(Handler handler, HttpServletResponse resp, Object[] paramValues) throws Exception {
+        if(handler.timeoutMillis <= 0){
+            return handler.method.invoke(handler.controller, paramValues);
+        }
+
+        MyDeadline deadline = MyDeadline.start(handler.timeoutMillis, deadlineScheduler);
+        Object returnValue;
+        try {
+            returnValue = handler.method.invoke(handler.controller, paramValues);
+        } catch (InvocationTargetException e) {
+            //超时或被中断后，Controller可能把中断包装成任意异常，都按超时处理
+            if(!deadline.isExpired() && !deadline.isInterrupted()){throw e;}
+            //其他异常可能是真正的错误，只是恰好发生在超时之后，先记录下来
+            Throwable cause = e.getCause();
+            if(!(cause instanceof MyDeadlineExceededException) && !(cause instanceof InterruptedException)){
+                cause.printStackTrace();
+            }
+            returnValue = null;
+        } finally {
+            deadline.finish();
+        }
+
+        if(!deadline.isExpired() && !deadline.isInterrupted()){return returnValue;}
+        if(!resp.isCommitted()){
+            //经过访问日志的包装类时，已丢弃的输出同时从字节数中扣除
+            resp.resetBuffer();
+            resp.setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+            writeMessage(resp, "504 Gateway Timeout");
+        }
+        return null;
+    }
+
+    /**
+     * 渲染视图，直接写入response的Writer
+     */
+    private void processDispatchResult(HttpServletResponse resp, MyModelAndView mv) throws Exception {
+        MyView view = viewResolver == null ? null : viewResolver.resolveViewName(mv.getViewName());
+        if(view == null){
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            resp.getWriter().write("404 Not Found, View : " + mv.getViewName());
+            return;
+        }
+        resp.setCharacterEncoding("UTF-8");
+        resp.setContentType("text/html;charset=UTF-8");
+        view.render(mv.getModel(), resp.getWriter());
+    }
+
     private Handler getHandler(HttpServletRequest req) {
         if(handlerMapping.isEmpty()){return null;}
         //获取绝对路径
@@ -157,14 +327,17 @@ public class DispatcherServlet extends HttpServlet {
 
     @Override
     public void init(ServletConfig config) throws ServletException {
+        long start = System.nanoTime();
+        super.init(config);
+
         //1、加载配置文件
         doLoadConfig(config.getInitParameter("contextConfigLocation"));
 
-        //2、扫描相关的类
-        doScanner(contextConfig.getProperty("scanPackage"));
+        //2、加载编译期生成的Bean工厂
+        doLoadBeanFactories();
 
-        //3、初始化扫描到的类，并且将他们放入到IOC容器中
-        doInstance();
+        //3、初始化scanPackage下的Bean，并且将他们放入到IOC容器中
+        doInstance(contextConfig.getProperty("scanPackage"));
 
         //4、完成依赖注入
         doAutowired();
@@ -172,6 +345,137 @@ public class DispatcherServlet extends HttpServlet {
         //5、初始化HandlerMapping
         initHandlerMapping();
 
+        //6、初始化超时中断
+        initDeadlineScheduler();
+
+        //7、初始化视图解析器
+        initViewResolver();
+
+        //8、初始化访问日志
+        initAccessLog();
+
+        //9、预热，在load-on-startup完成、接收请求之前执行所有Handler
+        long warmupStart = System.nanoTime();
+        doWarmup();
+        long ready = System.nanoTime();
+
+        //10、统计就绪后第一个请求和一段时间内的延迟分布，窗口结束后输出一次
+        long windowSeconds = Long.parseLong(contextConfig.getProperty("startup.metrics.windowSeconds", "60"));
+        if(windowSeconds > 0){
+            startupMetrics = new MyStartupMetrics(start, ready, ready - warmupStart, windowSeconds);
+            startupMetricsTimer = new Timer("startup-metrics", true);
+            startupMetricsTimer.schedule(new TimerTask() {
+                @Override
+                public void run() {
+                    reportStartupMetrics();
+                    cancel();
+                    startupMetricsTimer.cancel();
+                }
+            }, TimeUnit.SECONDS.toMillis(windowSeconds));
+        }
+    }
+
+    /**
+     * 用模拟请求把每个Handler执行若干次，让类加载、反射调用和JIT在接收流量前完成
+     * 直接调用Handler，不经过url匹配，因为urlPattern是正则，不一定是能访问的url
+     * 模拟请求会真正执行Controller方法，有副作用的路径应通过startup.warmup.excludes排除
+     */
+    private void doWarmup() {
+        int iterations = Integer.parseInt(contextConfig.getProperty("startup.warmup.iterations", "0"));
+        if(iterations <= 0 || handlerMapping.isEmpty()){return;}
+
+        String excludes = contextConfig.getProperty("startup.warmup.excludes", "");
+        Pattern excludePattern = "".equals(excludes.trim()) ? null : Pattern.compile(excludes.trim());
+
+        for (Handler handler : handlerMapping) {
+            String url = handler.getUrlPattern().pattern();
+            if(excludePattern != null && excludePattern.matcher(url).matches()){continue;}
+
+            Map<String, String[]> params = getWarmupParams(handler.getMethod());
+            for (int i = 0; i < iterations; i++) {
+                try {
+                    doDispatch(handler, MyWarmupRequests.request(url, params), MyWarmupRequests.response());
+                } catch (Exception e) {
+                    log("Warmup of " + url + " failed", e);
+                    break;
+                }
+            }
+        }
+    }
+
+    //按参数类型生成模拟参数值
+    private Map<String, String[]> getWarmupParams(Method method) {
+        Map<String, String[]> params = new HashMap<>();
+        Class<?>[] paramTypes = method.getParameterTypes();
+        Annotation[][] pa = method.getParameterAnnotations();
+        for (int i = 0; i < paramTypes.length; i++) {
+            for (Annotation annotation : pa[i]) {
+                if(!(annotation instanceof MyRequestParam)){continue;}
+                String value = "warmup";
+                if(Integer.class == paramTypes[i] || Double.class == paramTypes[i]){
+                    value = "1";
+                }
+                params.put(((MyRequestParam) annotation).value(), new String[]{value});
+            }
+        }
+        return params;
+    }
+
+    /**
+     * 初始化访问日志，请求线程只写入环形缓冲区，由后台线程批量写文件
+     */
+    private void initAccessLog() {
+        if(!Boolean.parseBoolean(contextConfig.getProperty("accessLog.enabled"))){return;}
+
+        int bufferSize = Integer.parseInt(contextConfig.getProperty("accessLog.bufferSize", "8192"));
+        int batchSize = Integer.parseInt(contextConfig.getProperty("accessLog.batchSize", "256"));
+        long maxFileSize = Long.parseLong(contextConfig.getProperty("accessLog.maxFileSize", "104857600"));
+        long flushInterval = Long.parseLong(contextConfig.getProperty("accessLog.flushIntervalMillis", "200"));
+        String file = contextConfig.getProperty("accessLog.file", "logs/access.log");
+        String pattern = contextConfig.getProperty("accessLog.pattern", MyAccessLogFormat.DEFAULT_PATTERN);
+
+        MyAccessLogRingBuffer buffer = new MyAccessLogRingBuffer(bufferSize);
+        MyAccessLogWriter writer = new MyAccessLogWriter(buffer, new MyAccessLogFormat(pattern),
+                new File(file), maxFileSize, batchSize, flushInterval);
+        try {
+            writer.start();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        accessLogBuffer = buffer;
+        accessLogWriter = writer;
+    }
+
+    /**
+     * 开启request.timeoutInterrupt后，请求到期时由后台线程中断请求线程
+     * 默认只做协作式检查，因为中断可能导致容器的NIO通道被关闭
+     */
+    private void initDeadlineScheduler() {
+        if(!Boolean.parseBoolean(contextConfig.getProperty("request.timeoutInterrupt"))){return;}
+
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "request-deadline-timer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        //请求正常结束时取消的定时任务立即移出队列
+        scheduler.setRemoveOnCancelPolicy(true);
+        deadlineScheduler = scheduler;
+    }
+
+    /**
+     * 初始化视图解析器，模板在第一次使用时编译并缓存
+     */
+    private void initViewResolver() {
+        String templateRoot = contextConfig.getProperty("templateRoot");
+        if(templateRoot == null || "".equals(templateRoot.trim())){return;}
+
+        boolean devMode = Boolean.parseBoolean(contextConfig.getProperty("templateDevMode"));
+        viewResolver = new MyViewResolver(templateRoot.trim(), devMode);
     }
 
     /**
@@ -180,6 +484,8 @@ public class DispatcherServlet extends HttpServlet {
     private void initHandlerMapping() {
         if(ioc.isEmpty()){return;}
 
+        long defaultTimeout = Long.parseLong(contextConfig.getProperty("request.timeoutMillis", "0"));
+
         for (Map.Entry<String, Object> entry : ioc.entrySet()) {
             Class<?> clazz = entry.getValue().getClass();
 
@@ -197,7 +503,8 @@ public class DispatcherServlet extends HttpServlet {
                 MyRequestMapping requestMapping = method.getAnnotation(MyRequestMapping.class);
                 String regex = ("/" + baseUrl + "/" + requestMapping.value()).replaceAll("/+", "/");
                 Pattern pattern = Pattern.compile(regex);
-                handlerMapping.add(new Handler(pattern, entry.getValue(), method));
+                long timeout = requestMapping.timeout() < 0 ? defaultTimeout : requestMapping.timeout();
+                handlerMapping.add(new Handler(pattern, entry.getValue(), method, timeout));
             }
 
         }
@@ -205,106 +512,90 @@ public class DispatcherServlet extends HttpServlet {
     }
 
     /**
-     * 依赖注入
+     * 依赖注入，注入点在编译期已经检查，这里直接调用生成的代码
+     * 注入时按需创建的依赖追加在created末尾，同样会被注入
      */
     private void doAutowired() {
         if(ioc.isEmpty()){return;}
 
-        for (Map.Entry<String, Object> entry : ioc.entrySet()) {
-            //获取所有字段
-            Field[] fields = entry.getValue().getClass().getDeclaredFields();
-            for (Field field : fields) {
-                if (!field.isAnnotationPresent(MyAutowired.class)){continue;}
-
-                MyAutowired autowired = field.getAnnotation(MyAutowired.class);
-
-                String beanName = autowired.value();
-                if("".equals(beanName)){
-                    beanName = field.getType().getName();
-                }
-
-                field.setAccessible(true);
-
-                try {
-                    field.set(entry.getValue(), ioc.get(beanName));
-                } catch (IllegalAccessException e) {
-                    e.printStackTrace();
-                }
-            }
-
+        for (int i = 0; i < beanRegistry.created.size(); i++) {
+            inject(beanFactories.get(beanRegistry.created.get(i)), beanRegistry);
         }
 
     }
 
-    private String toUpperFirstCase(String simpleName) {
-        char[] chars = simpleName.toCharArray();
-        chars[0] -= 32;
-        return String.valueOf(chars);
+    private <T> void inject(MyBeanFactory<T> factory, MyBeanRegistry registry) {
+        T bean = factory.getBeanType().cast(ioc.get(factory.getBeanName()));
+        factory.inject(bean, registry);
     }
 
     /**
-     * 初始化扫描到的类，并且将他们放入到IOC容器中
+     * 初始化scanPackage下的Bean，并且将他们放入到IOC容器中
+     * 依赖的Bean即使不在scanPackage下也会被创建，它们在编译期已经和依赖方一起检查过
      */
-    private void doInstance() {
-        if (classNames.isEmpty()) {return; }
-
-        try {
-            for (String className : classNames) {
-                Class<?> clazz = Class.forName(className);
-                if(clazz.isAnnotationPresent(MyController.class)){
-                    Object instance = clazz.newInstance();
-                    String beanName = toLowerFirstCase(clazz.getSimpleName());
-                    ioc.put(beanName, instance);
-                } else if(clazz.isAnnotationPresent(MyService.class)){
-                    MyService service = clazz.getAnnotation(MyService.class);
-                    String beanName = service.value();
-                    if("".equals(beanName)){
-                        beanName = toLowerFirstCase(clazz.getSimpleName());
-                    }
-
-                    Object instance = clazz.newInstance();
-                    ioc.put(beanName, instance);
-
-                    for (Class<?> i : clazz.getInterfaces()){
-                        if(ioc.containsKey(i.getName())){
-                            throw new Exception("The \"" + i.getName() + "\" is exists");
-                        }
-                        ioc.put(i.getName(), instance);
-                    }
-                } else {
-                    continue;
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+    private void doInstance(String scanPackage) {
+        String prefix = scanPackage + ".";
+        for (MyBeanFactory<?> factory : beanFactories.values()) {
+            if(!factory.getBeanType().getName().startsWith(prefix)){continue;}
+            beanRegistry.getBean(factory.getBeanName());
         }
-    }
 
-    private String toLowerFirstCase(String simpleName){
-        char[] chars = simpleName.toCharArray();
-        chars[0] += 32;
-        return String.valueOf(chars);
+        //没有生成Bean工厂时容器为空，所有请求都会404，直接启动失败
+        if(ioc.isEmpty()){
+            throw new IllegalStateException("No bean factory found for scanPackage \"" + scanPackage
+                    + "\", make sure MyBeanFactoryProcessor runs during compilation");
+        }
     }
 
     /**
-     * 2、扫描相关的类
-     * @param scanPackage
+     * 2、加载编译期生成的所有Bean工厂
      */
-    private void doScanner(String scanPackage) {
-        URL url = this.getClass().getClassLoader().getResource("/" + scanPackage.replaceAll("\\.", "/"));
-        File classPath = new File(url.getFile());
-        for (File file : classPath.listFiles()) {
-            if(file.isDirectory()){
-                doScanner(scanPackage + "." + file.getName());
-            } else {
-                if(!file.getName().endsWith(".class")){continue;}
-                String className = scanPackage + "." + file.getName().replaceAll(".class", "");
-                classNames.add(className);
+    private void doLoadBeanFactories() {
+        for (MyBeanFactory<?> factory : ServiceLoader.load(MyBeanFactory.class, this.getClass().getClassLoader())) {
+            MyBeanFactory<?> exists = beanFactories.put(factory.getBeanName(), factory);
+            if(exists != null){
+                throw new IllegalStateException("The bean \"" + factory.getBeanName() + "\" is defined by both "
+                        + exists.getBeanType().getName() + " and " + factory.getBeanType().getName());
             }
         }
 
     }
 
+    //按beanName获取Bean，还未创建时通过工厂创建，用于构造方法注入
+    private class IocBeanRegistry implements MyBeanRegistry {
+        //正在创建的Bean，用于发现循环依赖
+        private Set<String> creating = new HashSet<>();
+
+        //已创建的Bean，按创建顺序
+        private List<String> created = new ArrayList<>();
+
+        @Override
+        public Object getBean(String beanName) {
+            Object bean = ioc.get(beanName);
+            if(bean != null){return bean;}
+
+            MyBeanFactory<?> factory = beanFactories.get(beanName);
+            if(factory == null){
+                throw new IllegalStateException("The bean \"" + beanName + "\" is not found");
+            }
+            if(!creating.add(beanName)){
+                throw new IllegalStateException("Circular constructor dependency : " + beanName);
+            }
+            bean = factory.create(this);
+            creating.remove(beanName);
+
+            ioc.put(beanName, bean);
+            created.add(beanName);
+            for (String alias : factory.getAliases()){
+                if(ioc.containsKey(alias)){
+                    throw new IllegalStateException("The \"" + alias + "\" is exists");
+                }
+                ioc.put(alias, bean);
+            }
+            return bean;
+        }
+    }
+
     /**
      * 1、加载配置文件
      * @param contextConfigLocation
@@ -0,0 +1,136 @@
+package com.study.spring.mvcframwork.startup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 启动后的请求统计：第一个请求到达的时间，以及就绪后一段时间窗口内的延迟分布
+ * 延迟按微秒放入对数分桶(每个2的幂再分8段，误差不超过12.5%)，记录时只有几次原子操作
+ * 窗口结束时(或提前停止时)由report输出一次汇总结果，之后不再统计
+ */
+public class MyStartupMetrics {
+    private static final int SUB_BUCKETS = 8;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final long startNanos;
+    private final long readyNanos;
+    private final long warmupNanos;
+    private final long windowEndNanos;
+
+    private final AtomicLong firstRequestNanos = new AtomicLong(-1);
+    private final AtomicLong firstLatencyNanos = new AtomicLong(-1);
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong(0);
+    private final AtomicLong maxMicros = new AtomicLong(0);
+    private final AtomicBoolean reported = new AtomicBoolean(false);
+
+    /**
+     * @param startNanos  init开始的时间
+     * @param readyNanos  init(包括预热)完成的时间
+     * @param warmupNanos 预热用时
+     */
+    public MyStartupMetrics(long startNanos, long readyNanos, long warmupNanos, long windowSeconds) {
+        this.startNanos = startNanos;
+        this.readyNanos = readyNanos;
+        this.warmupNanos = warmupNanos;
+        this.windowEndNanos = readyNanos + TimeUnit.SECONDS.toNanos(windowSeconds);
+    }
+
+    /**
+     * 请求到达时调用，记录第一个到达的请求
+     */
+    public void requestStarted(long requestStartNanos) {
+        if (reported.get() || requestStartNanos - windowEndNanos >= 0) {return;}
+        firstRequestNanos.compareAndSet(-1, requestStartNanos);
+    }
+
+    /**
+     * 请求完成时调用，窗口结束后不再统计
+     */
+    public void record(long requestStartNanos, long endNanos) {
+        if (reported.get() || endNanos - windowEndNanos >= 0) {return;}
+
+        long latencyNanos = endNanos - requestStartNanos;
+        if (requestStartNanos == firstRequestNanos.get()) {
+            firstLatencyNanos.set(latencyNanos);
+        }
+
+        long micros = TimeUnit.NANOSECONDS.toMicros(latencyNanos);
+        buckets.incrementAndGet(bucket(micros));
+        count.incrementAndGet();
+        long max;
+        while (micros > (max = maxMicros.get()) && !maxMicros.compareAndSet(max, micros)) {
+            //并发更新最大值
+        }
+    }
+
+    public long getWindowEndNanos() {
+        return windowEndNanos;
+    }
+
+    /**
+     * 只有第一次调用返回汇总结果，之后返回null
+     * 在窗口结束前调用(例如Servlet被销毁)时，只统计到当前时间
+     */
+    public String report(long nowNanos) {
+        if (!reported.compareAndSet(false, true)) {return null;}
+        long windowNanos = Math.min(nowNanos, windowEndNanos) - readyNanos;
+        return summary(TimeUnit.NANOSECONDS.toSeconds(Math.max(0, windowNanos)));
+    }
+
+    private String summary(long windowSeconds) {
+        StringBuilder sb = new StringBuilder("Startup metrics: ready in ")
+                .append(toMillis(readyNanos - startNanos)).append(" ms (warmup ")
+                .append(toMillis(warmupNanos)).append(" ms)");
+
+        long first = firstRequestNanos.get();
+        if (first == -1) {
+            return sb.append(", no request in the first ").append(windowSeconds).append(" s").toString();
+        }
+        long firstLatency = firstLatencyNanos.get();
+        sb.append(", first request ").append(toMillis(first - readyNanos)).append(" ms after ready, took ")
+                .append(firstLatency == -1 ? "-" : String.valueOf(toMillis(firstLatency))).append(" ms; first ")
+                .append(windowSeconds).append(" s: ")
+                .append(count.get()).append(" requests, p50=").append(percentileMicros(0.50))
+                .append("us p90=").append(percentileMicros(0.90))
+                .append("us p99=").append(percentileMicros(0.99))
+                .append("us max=").append(maxMicros.get()).append("us");
+        return sb.toString();
+    }
+
+    //返回所在分桶的上界
+    long percentileMicros(double percentile) {
+        long total = count.get();
+        if (total == 0) {return 0;}
+        long rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) {return (int) Math.max(0, micros);}
+        int exp = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) ((micros >>> (exp - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return (exp - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {return bucket;}
+        int exp = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1L) << (exp - SUB_BUCKET_BITS)) - 1;
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,87 @@
+package com.study.spring.mvcframwork.startup;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 预热阶段使用的模拟请求和响应，不依赖具体的Servlet容器
+ * 响应内容直接丢弃
+ */
+public class MyWarmupRequests {
+
+    private MyWarmupRequests() {
+    }
+
+    public static HttpServletRequest request(final String uri, final Map<String, String[]> params) {
+        return (HttpServletRequest) newProxy(HttpServletRequest.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "getRequestURI": return uri;
+                    case "getContextPath": return "";
+                    case "getServletPath": return "";
+                    case "getMethod": return "GET";
+                    case "getParameterMap": return params;
+                    case "getParameter":
+                        String[] values = params.get(args[0]);
+                        return values == null || values.length == 0 ? null : values[0];
+                    case "getParameterValues": return params.get(args[0]);
+                    case "getParameterNames": return Collections.enumeration(params.keySet());
+                    default: return defaultValue(method.getReturnType());
+                }
+            }
+        });
+    }
+
+    public static HttpServletResponse response() {
+        final PrintWriter writer = new PrintWriter(new Writer() {
+            @Override
+            public void write(char[] cbuf, int off, int len) {
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        final ServletOutputStream outputStream = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        };
+        return (HttpServletResponse) newProxy(HttpServletResponse.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "getWriter": return writer;
+                    case "getOutputStream": return outputStream;
+                    case "getCharacterEncoding": return "UTF-8";
+                    default: return defaultValue(method.getReturnType());
+                }
+            }
+        });
+    }
+
+    private static Object newProxy(Class<?> type, InvocationHandler handler) {
+        return Proxy.newProxyInstance(MyWarmupRequests.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    //基本类型不能返回null
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {return false;}
+        if (type == int.class) {return 0;}
+        if (type == long.class) {return 0L;}
+        return null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.study.spring.mvcframwork.webmvc;
+
+import java.util.HashMap;
+import java.util.Map;
+
+//Controller的返回值，视图名称 + 模型数据
+public class MyModelAndView {
+    private String viewName;
+    private Map<String, Object> model;
+
+    public MyModelAndView(String viewName) {
+        this(viewName, new HashMap<String, Object>());
+    }
+
+    public MyModelAndView(String viewName, Map<String, Object> model) {
+        this.viewName = viewName;
+        this.model = model;
+    }
+
+    public MyModelAndView addObject(String name, Object value) {
+        this.model.put(name, value);
+        return this;
+    }
+
+    public String getViewName() {
+        return viewName;
+    }
+
+    public Map<String, Object> getModel() {
+        return model;
+    }
+}
@@ -0,0 +1,106 @@
+package com.study.spring.mvcframwork.webmvc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译的模板，模板内容只解析一次，拆分为文本片段和${name}占位符片段
+ * 渲染时按顺序直接写入Writer，不拼接中间字符串
+ */
+public class MyView {
+    private static final String PLACEHOLDER_PREFIX = "${";
+    private static final String PLACEHOLDER_SUFFIX = "}";
+
+    //模板文件，开发模式下用于检查是否被修改
+    private File templateFile;
+    private long lastModified;
+
+    //解析后的指令序列
+    private List<Segment> segments;
+
+    public MyView(File templateFile, String template) {
+        this.templateFile = templateFile;
+        this.lastModified = templateFile.lastModified();
+        this.segments = compile(template);
+    }
+
+    public boolean isModified() {
+        return templateFile.lastModified() != lastModified;
+    }
+
+    public void render(Map<String, ?> model, Writer out) throws IOException {
+        for (Segment segment : segments) {
+            if (segment.key == null) {
+                out.write(segment.text, 0, segment.text.length);
+                continue;
+            }
+            Object value = model == null ? null : model.get(segment.key);
+            if (value == null) {continue;}
+            writeEscaped(String.valueOf(value), out);
+        }
+    }
+
+    //不需要转义的连续字符一次写出，避免逐个字符调用Writer
+    private void writeEscaped(String value, Writer out) throws IOException {
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            String replacement;
+            switch (value.charAt(i)) {
+                case '<': replacement = "&lt;"; break;
+                case '>': replacement = "&gt;"; break;
+                case '&': replacement = "&amp;"; break;
+                case '"': replacement = "&quot;"; break;
+                case '\'': replacement = "&#39;"; break;
+                default: continue;
+            }
+            if (i > start) {
+                out.write(value, start, i - start);
+            }
+            out.write(replacement);
+            start = i + 1;
+        }
+        if (start < value.length()) {
+            out.write(value, start, value.length() - start);
+        }
+    }
+
+    private List<Segment> compile(String template) {
+        List<Segment> result = new ArrayList<Segment>();
+        int index = 0;
+        while (index < template.length()) {
+            int start = template.indexOf(PLACEHOLDER_PREFIX, index);
+            int end = start < 0 ? -1 : template.indexOf(PLACEHOLDER_SUFFIX, start);
+            if (end < 0) {
+                result.add(new Segment(template.substring(index).toCharArray(), null));
+                break;
+            }
+            if (start > index) {
+                result.add(new Segment(template.substring(index, start).toCharArray(), null));
+            }
+            String key = template.substring(start + PLACEHOLDER_PREFIX.length(), end).trim();
+            index = end + PLACEHOLDER_SUFFIX.length();
+            //${}没有名称，按普通文本输出
+            if ("".equals(key)) {
+                result.add(new Segment(template.substring(start, index).toCharArray(), null));
+            } else {
+                result.add(new Segment(null, key));
+            }
+        }
+        return result;
+    }
+
+    //文本片段key为null，占位符片段text为null
+    private static class Segment {
+        private final char[] text;
+        private final String key;
+
+        Segment(char[] text, String key) {
+            this.text = text;
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.study.spring.mvcframwork.webmvc;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 根据视图名称找到模板并缓存编译结果
+ * 模板第一次使用时编译，开发模式下发现文件被修改会重新编译
+ */
+public class MyViewResolver {
+    private static final String DEFAULT_TEMPLATE_SUFFIX = ".html";
+
+    private File templateRootDir;
+    private boolean devMode;
+
+    private ConcurrentMap<String, MyView> viewCache = new ConcurrentHashMap<String, MyView>();
+
+    public MyViewResolver(String templateRoot, boolean devMode) {
+        URL url = this.getClass().getClassLoader().getResource(templateRoot);
+        if (url == null) {
+            throw new IllegalArgumentException("The template root \"" + templateRoot + "\" is not found");
+        }
+        this.templateRootDir = new File(url.getFile());
+        this.devMode = devMode;
+    }
+
+    public MyViewResolver(File templateRootDir, boolean devMode) {
+        this.templateRootDir = templateRootDir;
+        this.devMode = devMode;
+    }
+
+    public MyView resolveViewName(String viewName) throws IOException {
+        if (viewName == null || "".equals(viewName.trim())) {return null;}
+
+        MyView view = viewCache.get(viewName);
+        if (view != null && !(devMode && view.isModified())) {
+            return view;
+        }
+
+        String fileName = viewName.endsWith(DEFAULT_TEMPLATE_SUFFIX) ? viewName : viewName + DEFAULT_TEMPLATE_SUFFIX;
+        File templateFile = new File(templateRootDir, fileName);
+        if (!templateFile.isFile()) {return null;}
+
+        view = new MyView(templateFile, readTemplate(templateFile));
+        viewCache.put(viewName, view);
+        return view;
+    }
+
+    private String readTemplate(File templateFile) throws IOException {
+        StringBuilder sb = new StringBuilder((int) templateFile.length());
+        try (Reader reader = new InputStreamReader(new FileInputStream(templateFile), "UTF-8")) {
+            char[] buffer = new char[4096];
+            int len;
+            while ((len = reader.read(buffer)) != -1) {
+                sb.append(buffer, 0, len);
+            }
+        }
+        return sb.toString();
+    }
+}
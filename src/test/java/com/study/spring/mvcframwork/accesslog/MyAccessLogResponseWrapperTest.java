@@ -0,0 +1,59 @@
+package com.study.spring.mvcframwork.accesslog;
+
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import static org.junit.Assert.assertEquals;
+
+public class MyAccessLogResponseWrapperTest {
+
+    @Test
+    public void countsEncodedBytesOfWriterOutput() throws Exception {
+        MyAccessLogResponseWrapper wrapper = new MyAccessLogResponseWrapper(response("UTF-8"));
+        PrintWriter writer = wrapper.getWriter();
+        writer.write("ab");
+        writer.write("你好");
+        writer.write('é');
+        writer.write("😀".toCharArray());
+        assertEquals(2 + 6 + 2 + 4, wrapper.getBytes());
+
+        wrapper.resetBuffer();
+        assertEquals(0, wrapper.getBytes());
+    }
+
+    @Test
+    public void countsSingleByteCharsets() throws Exception {
+        MyAccessLogResponseWrapper wrapper = new MyAccessLogResponseWrapper(response("ISO-8859-1"));
+        wrapper.getWriter().write("hello");
+        assertEquals(5, wrapper.getBytes());
+    }
+
+    @Test
+    public void recordsStatus() throws Exception {
+        MyAccessLogResponseWrapper wrapper = new MyAccessLogResponseWrapper(response("UTF-8"));
+        assertEquals(200, wrapper.getStatus());
+        wrapper.setStatus(504);
+        assertEquals(504, wrapper.getStatus());
+    }
+
+    private HttpServletResponse response(final String encoding) {
+        final PrintWriter writer = new PrintWriter(new StringWriter());
+        return (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{HttpServletResponse.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        switch (method.getName()) {
+                            case "getWriter": return writer;
+                            case "getCharacterEncoding": return encoding;
+                            default: return null;
+                        }
+                    }
+                });
+    }
+}
@@ -0,0 +1,117 @@
+package com.study.spring.mvcframwork.accesslog;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MyAccessLogRingBufferTest {
+
+    @Test
+    public void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(1024, new MyAccessLogRingBuffer(1000).getCapacity());
+        assertEquals(8, new MyAccessLogRingBuffer(8).getCapacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveCapacity() {
+        new MyAccessLogRingBuffer(0);
+    }
+
+    @Test
+    public void dropsWhenFullAndReusesSlotsAfterDrain() throws Exception {
+        MyAccessLogRingBuffer buffer = new MyAccessLogRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.publish("GET", "/demo/query", 200, i, 0));
+        }
+        assertFalse(buffer.publish("GET", "/demo/query", 200, 4, 0));
+        assertEquals(1, buffer.getDroppedCount());
+
+        final List<Long> latencies = new ArrayList<Long>();
+        MyAccessLogRingBuffer.EventHandler handler = new MyAccessLogRingBuffer.EventHandler() {
+            @Override
+            public void onEvent(MyAccessLogEvent event) {
+                latencies.add(event.latencyMillis);
+            }
+        };
+        assertEquals(2, buffer.drain(handler, 2));
+        assertTrue(buffer.publish("GET", "/demo/query", 200, 5, 0));
+        assertEquals(3, buffer.drain(handler, 10));
+        assertEquals(0, buffer.drain(handler, 10));
+
+        assertEquals("[0, 1, 2, 3, 5]", latencies.toString());
+    }
+
+    /**
+     * 多个生产者和一个消费者并发：每个事件最多被消费一次，同一生产者的事件保持顺序，
+     * 消费数 + 丢弃数 = 发布总数
+     */
+    @Test
+    public void concurrentProducersAndConsumer() throws Exception {
+        final int producers = 4;
+        final int eventsPerProducer = 200000;
+        final MyAccessLogRingBuffer buffer = new MyAccessLogRingBuffer(1024);
+
+        final long[] received = new long[producers];
+        final long[] lastSeq = new long[producers];
+        for (int i = 0; i < producers; i++) {
+            lastSeq[i] = -1;
+        }
+        final AtomicBoolean outOfOrder = new AtomicBoolean(false);
+        final MyAccessLogRingBuffer.EventHandler handler = new MyAccessLogRingBuffer.EventHandler() {
+            @Override
+            public void onEvent(MyAccessLogEvent event) {
+                int producer = (int) event.bytes;
+                if (event.latencyMillis <= lastSeq[producer] || !("/p" + producer).equals(event.route)) {
+                    outOfOrder.set(true);
+                }
+                lastSeq[producer] = event.latencyMillis;
+                received[producer]++;
+            }
+        };
+
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(producers);
+        final String[] routes = new String[producers];
+        for (int p = 0; p < producers; p++) {
+            routes[p] = "/p" + p;
+            final int producer = p;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        for (int i = 0; i < eventsPerProducer; i++) {
+                            buffer.publish("GET", routes[producer], 200, i, producer);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        doneLatch.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        startLatch.countDown();
+        while (doneLatch.getCount() > 0) {
+            buffer.drain(handler, 256);
+        }
+        while (buffer.drain(handler, 256) > 0) {
+            //取完剩余事件
+        }
+
+        long total = 0;
+        for (long count : received) {
+            total += count;
+        }
+        assertFalse("events out of order or corrupted", outOfOrder.get());
+        assertEquals((long) producers * eventsPerProducer, total + buffer.getDroppedCount());
+    }
+}
@@ -0,0 +1,88 @@
+package com.study.spring.mvcframwork.accesslog;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MyAccessLogWriterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writesFormattedEvents() throws Exception {
+        File file = new File(folder.getRoot(), "logs/access.log");
+        MyAccessLogRingBuffer buffer = new MyAccessLogRingBuffer(16);
+        MyAccessLogWriter writer = new MyAccessLogWriter(buffer, new MyAccessLogFormat("%m %r %s %D %b 100%%"),
+                file, 1024 * 1024, 16, 100);
+        writer.start();
+        buffer.publish("GET", "/demo/query", 200, 12, 345);
+        buffer.publish("POST", "-", 404, 1, 13);
+        writer.stop();
+
+        assertEquals("GET /demo/query 200 12 345 100%\nPOST - 404 1 13 100%\n", read(file));
+    }
+
+    //每一批都会滚动，同一毫秒内多次滚动也不能覆盖已有文件
+    @Test
+    public void rollingKeepsEveryFile() throws Exception {
+        File file = new File(folder.getRoot(), "access.log");
+        MyAccessLogRingBuffer buffer = new MyAccessLogRingBuffer(1024);
+        MyAccessLogWriter writer = new MyAccessLogWriter(buffer, new MyAccessLogFormat("%r"),
+                file, 1, 1, 100);
+        writer.start();
+        int events = 200;
+        for (int i = 0; i < events; i++) {
+            assertTrue(buffer.publish("GET", "/r" + i, 200, 0, 0));
+        }
+        writer.stop();
+
+        File[] files = folder.getRoot().listFiles();
+        int lines = 0;
+        for (File f : files) {
+            String content = read(f);
+            lines += content.isEmpty() ? 0 : content.split("\n").length;
+        }
+        assertEquals(events, lines);
+        assertTrue(files.length > 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroFlushInterval() {
+        newWriter(1024, 16, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroBatchSize() {
+        newWriter(1024, 0, 100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroMaxFileSize() {
+        newWriter(0, 16, 100);
+    }
+
+    private MyAccessLogWriter newWriter(long maxFileSize, int batchSize, long flushIntervalMillis) {
+        return new MyAccessLogWriter(new MyAccessLogRingBuffer(16), new MyAccessLogFormat("%r"),
+                new File(folder.getRoot(), "access.log"), maxFileSize, batchSize, flushIntervalMillis);
+    }
+
+    private String read(File file) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                sb.append(line).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
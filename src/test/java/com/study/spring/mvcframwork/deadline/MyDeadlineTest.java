@@ -0,0 +1,74 @@
+package com.study.spring.mvcframwork.deadline;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MyDeadlineTest {
+    private ScheduledThreadPoolExecutor scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new ScheduledThreadPoolExecutor(1);
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void cooperativeCheckThrowsAfterExpiry() throws Exception {
+        MyDeadline deadline = MyDeadline.start(20, null);
+        try {
+            assertSame(deadline, MyDeadline.current());
+            MyDeadline.checkCurrent();
+            Thread.sleep(40);
+            assertTrue(deadline.isExpired());
+            try {
+                MyDeadline.checkCurrent();
+                fail("expected MyDeadlineExceededException");
+            } catch (MyDeadlineExceededException expected) {
+                //超时
+            }
+        } finally {
+            deadline.finish();
+        }
+        assertNull(MyDeadline.current());
+        assertFalse(deadline.isInterrupted());
+    }
+
+    @Test
+    public void interruptsBlockedThreadAndClearsFlagOnFinish() {
+        MyDeadline deadline = MyDeadline.start(20, scheduler);
+        try {
+            Thread.sleep(5000);
+            fail("expected interrupt");
+        } catch (InterruptedException expected) {
+            //被截止时间中断
+        } finally {
+            deadline.finish();
+        }
+        assertTrue(deadline.isInterrupted());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    public void noInterruptAfterFinish() throws Exception {
+        MyDeadline deadline = MyDeadline.start(20, scheduler);
+        deadline.finish();
+        Thread.sleep(60);
+        assertFalse(deadline.isInterrupted());
+        assertFalse(Thread.currentThread().isInterrupted());
+        assertTrue(scheduler.getQueue().isEmpty());
+    }
+}
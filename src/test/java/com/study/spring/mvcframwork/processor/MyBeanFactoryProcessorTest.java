@@ -0,0 +1,133 @@
+package com.study.spring.mvcframwork.processor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MyBeanFactoryProcessorTest {
+    private static final String IMPORTS = "package x;\nimport com.study.spring.mvcframwork.annotation.*;\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void generatesFactoriesForFieldAndConstructorInjection() throws IOException {
+        List<String> errors = compile(
+                "Api", "public interface Api {}",
+                "Impl", "@MyService public class Impl implements Api {}",
+                "Web", "@MyController public class Web { @MyAutowired Api api; }",
+                "Ctor", "@MyService(\"ctor\") public class Ctor { @MyAutowired public Ctor(Impl impl) {} }");
+        assertEquals("[]", errors.toString());
+
+        File generated = new File(folder.getRoot(), "generated/x/Web" + MyBeanFactoryProcessor.FACTORY_SUFFIX + ".java");
+        assertTrue(generated.isFile());
+        File services = new File(folder.getRoot(), "classes/META-INF/services/com.study.spring.mvcframwork.beans.MyBeanFactory");
+        assertTrue(services.isFile());
+    }
+
+    @Test
+    public void rejectsMissingAmbiguousAndPrivateInjectionPoints() throws IOException {
+        List<String> errors = compile(
+                "A", "@MyService public class A implements Runnable { public void run() {} }",
+                "B", "@MyService public class B implements Runnable { public void run() {} }",
+                "Web", "@MyController public class Web { @MyAutowired Runnable r; @MyAutowired Comparable<?> c; "
+                        + "@MyAutowired private A a; @MyAutowired(\"none\") A named; }");
+        assertContains(errors, "More than one bean of type java.lang.Runnable");
+        assertContains(errors, "No bean of type java.lang.Comparable");
+        assertContains(errors, "can not be private");
+        assertContains(errors, "No bean named \"none\"");
+    }
+
+    @Test
+    public void rejectsConstructorCycles() throws IOException {
+        List<String> errors = compile(
+                "A", "@MyService public class A { @MyAutowired public A(B b) {} }",
+                "B", "@MyService public class B { @MyAutowired public B(A a) {} }");
+        assertContains(errors, "Circular constructor dependency");
+    }
+
+    //增量编译只编译新增的类：依赖之前编译的Bean，services文件保留原有条目
+    @Test
+    public void partialCompileMergesPreviousBeans() throws IOException {
+        File classes = folder.newFolder("classes");
+        assertEquals("[]", compile(classes,
+                "Api", "public interface Api {}",
+                "Impl", "@MyService public class Impl implements Api {}",
+                "Web", "@MyController public class Web { @MyAutowired Api api; }").toString());
+
+        assertEquals("[]", compile(classes,
+                "Other", "@MyController public class Other { @MyAutowired Api api; }").toString());
+
+        String services = new String(Files.readAllBytes(
+                new File(classes, "META-INF/services/com.study.spring.mvcframwork.beans.MyBeanFactory").toPath()), "UTF-8");
+        List<String> entries = Arrays.asList(services.trim().split("\\s+"));
+        assertEquals(3, entries.size());
+        assertTrue(entries.containsAll(Arrays.asList("x.Other" + MyBeanFactoryProcessor.FACTORY_SUFFIX,
+                "x.Impl" + MyBeanFactoryProcessor.FACTORY_SUFFIX, "x.Web" + MyBeanFactoryProcessor.FACTORY_SUFFIX)));
+    }
+
+    private void assertContains(List<String> errors, String message) {
+        for (String error : errors) {
+            if (error.contains(message)) {return;}
+        }
+        throw new AssertionError("Expected \"" + message + "\" in " + errors);
+    }
+
+    //参数依次为类名、类体
+    private List<String> compile(String... sources) throws IOException {
+        return compile(folder.newFolder("classes"), sources);
+    }
+
+    private List<String> compile(File classes, String... sources) throws IOException {
+        File sourceDir = new File(folder.newFolder(), "x");
+        File generated = new File(folder.getRoot(), "generated");
+        assertTrue(sourceDir.mkdirs() && (generated.isDirectory() || generated.mkdirs()));
+        List<File> files = new ArrayList<File>();
+        for (int i = 0; i < sources.length; i += 2) {
+            File file = new File(sourceDir, sources[i] + ".java");
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8")) {
+                writer.write(IMPORTS + sources[i + 1]);
+            }
+            files.add(file);
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            List<String> options = Arrays.asList(
+                    "-classpath", System.getProperty("java.class.path") + File.pathSeparator + classes.getPath(),
+                    "-processor", MyBeanFactoryProcessor.class.getName(),
+                    "-d", classes.getPath(),
+                    "-s", generated.getPath());
+            compiler.getTask(null, fileManager, diagnostics, options, null,
+                    fileManager.getJavaFileObjectsFromFiles(files)).call();
+        }
+
+        List<String> errors = new ArrayList<String>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(diagnostic.getMessage(null));
+            }
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,206 @@
+package com.study.spring.mvcframwork.servlet.v3;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 超时相关的分发逻辑，Controller见testapp.SlowController
+ */
+public class DispatcherServletTest {
+    private DispatcherServlet servlet;
+
+    @Before
+    public void setUp() throws Exception {
+        servlet = new DispatcherServlet();
+        servlet.init((ServletConfig) newProxy(ServletConfig.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "getInitParameter":
+                        return "contextConfigLocation".equals(args[0]) ? "dispatcher-test.properties" : null;
+                    case "getServletName": return "test";
+                    case "getServletContext": return newProxy(ServletContext.class, new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) {
+                            return null;
+                        }
+                    });
+                    default: return null;
+                }
+            }
+        }));
+    }
+
+    @After
+    public void tearDown() {
+        servlet.destroy();
+    }
+
+    @Test
+    public void cooperativeCheckReturns504() throws Exception {
+        FakeResponse resp = dispatch("/slow/cooperative");
+        assertEquals(504, resp.status);
+        assertEquals("504 Gateway Timeout", resp.body());
+    }
+
+    @Test
+    public void zeroTimeoutOptsOut() throws Exception {
+        FakeResponse resp = dispatch("/slow/noTimeout");
+        assertEquals(200, resp.status);
+        assertEquals("done", resp.body());
+    }
+
+    @Test
+    public void lateNormalReturnDiscardsOutputAndReturns504() throws Exception {
+        FakeResponse resp = dispatch("/slow/late");
+        assertEquals(504, resp.status);
+        assertEquals("504 Gateway Timeout", resp.body());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    public void handlerUsingOutputStreamGets504OnSameStream() throws Exception {
+        FakeResponse resp = dispatch("/slow/stream");
+        assertEquals(504, resp.status);
+        assertEquals("504 Gateway Timeout", resp.body());
+    }
+
+    @Test
+    public void wrappedInterruptReturns504() throws Exception {
+        String err = captureStdErr(new Task() {
+            @Override
+            public void run() throws Exception {
+                FakeResponse resp = dispatch("/slow/wrapped");
+                assertEquals(504, resp.status);
+                assertEquals("504 Gateway Timeout", resp.body());
+            }
+        });
+        assertTrue(err, err.contains("InterruptedException"));
+    }
+
+    @Test
+    public void failureAfterDeadlineIsLoggedAndReturns504() throws Exception {
+        String err = captureStdErr(new Task() {
+            @Override
+            public void run() throws Exception {
+                FakeResponse resp = dispatch("/slow/failsLate");
+                assertEquals(504, resp.status);
+            }
+        });
+        assertTrue(err, err.contains("downstream failed"));
+    }
+
+    private FakeResponse dispatch(String uri) throws Exception {
+        FakeResponse resp = new FakeResponse();
+        servlet.service(request(uri), resp.proxy());
+        return resp;
+    }
+
+    private HttpServletRequest request(final String uri) {
+        final Map<String, Object> attributes = new HashMap<String, Object>();
+        return (HttpServletRequest) newProxy(HttpServletRequest.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "getMethod": return "GET";
+                    case "getRequestURI": return uri;
+                    case "getContextPath": return "";
+                    case "getParameterMap": return new HashMap<String, String[]>();
+                    case "getDateHeader": return -1L;
+                    case "setAttribute": attributes.put((String) args[0], args[1]); return null;
+                    case "getAttribute": return attributes.get(args[0]);
+                    default: return null;
+                }
+            }
+        });
+    }
+
+    private String captureStdErr(Task task) throws Exception {
+        PrintStream original = System.err;
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(err, true, "UTF-8"));
+        try {
+            task.run();
+        } finally {
+            System.setErr(original);
+        }
+        return err.toString("UTF-8");
+    }
+
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    private static Object newProxy(Class<?> type, InvocationHandler handler) {
+        return Proxy.newProxyInstance(DispatcherServletTest.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    /**
+     * 和容器一样：getWriter和getOutputStream只能用其中一个，resetBuffer清空未提交的输出
+     */
+    private static class FakeResponse {
+        private int status = 200;
+        private final StringWriter chars = new StringWriter();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private boolean usingWriter;
+        private boolean usingStream;
+
+        String body() throws Exception {
+            return chars.toString() + bytes.toString("UTF-8");
+        }
+
+        HttpServletResponse proxy() {
+            final PrintWriter writer = new PrintWriter(chars);
+            final ServletOutputStream outputStream = new ServletOutputStream() {
+                @Override
+                public void write(int b) {
+                    bytes.write(b);
+                }
+            };
+            return (HttpServletResponse) newProxy(HttpServletResponse.class, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    switch (method.getName()) {
+                        case "getWriter":
+                            if (usingStream) {throw new IllegalStateException("getOutputStream() has already been called");}
+                            usingWriter = true;
+                            return writer;
+                        case "getOutputStream":
+                            if (usingWriter) {throw new IllegalStateException("getWriter() has already been called");}
+                            usingStream = true;
+                            return outputStream;
+                        case "resetBuffer":
+                            writer.flush();
+                            chars.getBuffer().setLength(0);
+                            bytes.reset();
+                            return null;
+                        case "setStatus": status = (Integer) args[0]; return null;
+                        case "isCommitted": return false;
+                        case "getCharacterEncoding": return "UTF-8";
+                        default: return null;
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.study.spring.mvcframwork.servlet.v3.testapp;
+
+import com.study.spring.mvcframwork.annotation.MyController;
+import com.study.spring.mvcframwork.annotation.MyRequestMapping;
+import com.study.spring.mvcframwork.deadline.MyDeadline;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+//DispatcherServletTest使用的Controller，全局超时为30毫秒
+@MyController
+@MyRequestMapping("/slow")
+public class SlowController {
+
+    @MyRequestMapping("/cooperative")
+    public String cooperative() {
+        while (true) {
+            MyDeadline.checkCurrent();
+            Thread.yield();
+        }
+    }
+
+    @MyRequestMapping(value = "/noTimeout", timeout = 0)
+    public String noTimeout() throws InterruptedException {
+        Thread.sleep(60);
+        return "done";
+    }
+
+    //忽略截止时间，超时后正常返回
+    @MyRequestMapping("/late")
+    public String late(HttpServletResponse resp) throws IOException {
+        resp.getWriter().write("partial");
+        spin(60);
+        return "late";
+    }
+
+    @MyRequestMapping("/stream")
+    public void stream(HttpServletResponse resp) throws IOException, InterruptedException {
+        resp.getOutputStream().write("partial".getBytes("UTF-8"));
+        Thread.sleep(5000);
+    }
+
+    @MyRequestMapping("/wrapped")
+    public String wrapped() {
+        try {
+            Thread.sleep(5000);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        return "done";
+    }
+
+    @MyRequestMapping("/failsLate")
+    public String failsLate() {
+        spin(60);
+        throw new IllegalStateException("downstream failed");
+    }
+
+    //忙等待，不响应中断
+    private void spin(long millis) {
+        long end = System.nanoTime() + millis * 1000000;
+        while (System.nanoTime() < end) {
+            Thread.yield();
+        }
+    }
+}
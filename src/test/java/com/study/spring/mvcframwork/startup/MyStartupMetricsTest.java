@@ -0,0 +1,80 @@
+package com.study.spring.mvcframwork.startup;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MyStartupMetricsTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long US = TimeUnit.MICROSECONDS.toNanos(1);
+
+    @Test
+    public void bucketsCoverEveryValueWithBoundedError() {
+        for (long micros = 0; micros < 100000; micros++) {
+            long upper = MyStartupMetrics.upperBound(MyStartupMetrics.bucket(micros));
+            assertTrue(micros <= upper);
+            assertTrue(upper <= micros + micros / 8);
+        }
+        long max = MyStartupMetrics.upperBound(MyStartupMetrics.bucket(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, max);
+    }
+
+    @Test
+    public void reportsPercentilesOnce() {
+        long start = 0;
+        long ready = 100 * MS;
+        MyStartupMetrics metrics = new MyStartupMetrics(start, ready, 40 * MS, 60);
+
+        //100个请求，延迟1..100毫秒，第一个请求在就绪后6毫秒到达
+        for (int i = 1; i <= 100; i++) {
+            long requestStart = ready + 5 * MS + i * MS;
+            metrics.requestStarted(requestStart);
+            metrics.record(requestStart, requestStart + i * MS);
+        }
+        //窗口结束后完成的请求不统计
+        long afterWindow = metrics.getWindowEndNanos();
+        metrics.requestStarted(afterWindow);
+        metrics.record(afterWindow, afterWindow + 500 * MS);
+
+        assertEquals(50 * 1000, metrics.percentileMicros(0.50), 50 * 1000 / 8);
+        assertEquals(99 * 1000, metrics.percentileMicros(0.99), 99 * 1000 / 8);
+        assertEquals(100 * 1000, metrics.percentileMicros(1.0));
+
+        String summary = metrics.report(afterWindow + MS);
+        assertTrue(summary, summary.contains("ready in 100 ms (warmup 40 ms)"));
+        assertTrue(summary, summary.contains("first request 6 ms after ready, took 1 ms"));
+        assertTrue(summary, summary.contains("first 60 s: 100 requests"));
+        assertTrue(summary, summary.contains("max=100000us"));
+
+        assertNull(metrics.report(afterWindow + 2 * MS));
+    }
+
+    //第一个到达的请求比后到达的请求更晚完成，仍然按到达时间统计
+    @Test
+    public void firstRequestIsFirstToArrive() {
+        long ready = 10 * MS;
+        MyStartupMetrics metrics = new MyStartupMetrics(0, ready, 0, 60);
+
+        long slowStart = ready + 2 * MS;
+        long fastStart = ready + 3 * MS;
+        metrics.requestStarted(slowStart);
+        metrics.requestStarted(fastStart);
+        metrics.record(fastStart, fastStart + MS);
+        metrics.record(slowStart, slowStart + 50 * MS);
+
+        String summary = metrics.report(ready + TimeUnit.SECONDS.toNanos(1));
+        assertTrue(summary, summary.contains("first request 2 ms after ready, took 50 ms"));
+        assertTrue(summary, summary.contains("first 1 s: 2 requests"));
+    }
+
+    @Test
+    public void reportsWhenNoRequestArrived() {
+        MyStartupMetrics metrics = new MyStartupMetrics(0, MS, 0, 1);
+        String summary = metrics.report(TimeUnit.SECONDS.toNanos(2));
+        assertTrue(summary, summary.contains("no request in the first 1 s"));
+    }
+}
@@ -0,0 +1,44 @@
+package com.study.spring.mvcframwork.webmvc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 模板渲染吞吐量，不属于单元测试，surefire不会执行
+ * 运行：mvn test-compile 后以 target/classes:target/test-classes 为classpath执行main方法
+ */
+public class MyViewBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            sb.append("<tr><td>${name}</td><td>${value}</td></tr>\n");
+        }
+        MyView view = new MyView(new File("benchmark.html"), sb.toString());
+        Map<String, Object> model = new HashMap<String, Object>();
+        model.put("name", "Tom & Jerry");
+        model.put("value", 42);
+
+        StringWriter out = new StringWriter(4096);
+        //预热
+        run(view, model, out, iterations / 10);
+
+        long start = System.nanoTime();
+        run(view, model, out, iterations);
+        long nanos = System.nanoTime() - start;
+        System.out.println("MyView render: " + (iterations * 1000000000L / nanos) + " ops/s, "
+                + (nanos / iterations) + " ns/op, " + out.getBuffer().length() + " chars/op");
+    }
+
+    private static void run(MyView view, Map<String, Object> model, StringWriter out, int iterations) throws IOException {
+        for (int i = 0; i < iterations; i++) {
+            out.getBuffer().setLength(0);
+            view.render(model, out);
+        }
+    }
+}
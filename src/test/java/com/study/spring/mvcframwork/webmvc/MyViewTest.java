@@ -0,0 +1,93 @@
+package com.study.spring.mvcframwork.webmvc;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class MyViewTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void rendersPlaceholders() throws IOException {
+        Map<String, Object> model = new HashMap<String, Object>();
+        model.put("name", "Tom");
+        model.put("count", 3);
+        assertEquals("Hello, Tom! 3 items", render("Hello, ${name}! ${ count } items", model));
+    }
+
+    @Test
+    public void escapesHtml() throws IOException {
+        Map<String, Object> model = new HashMap<String, Object>();
+        model.put("value", "a<b>&\"c'd");
+        assertEquals("[a&lt;b&gt;&amp;&quot;c&#39;d]", render("[${value}]", model));
+    }
+
+    @Test
+    public void unclosedPlaceholderIsText() throws IOException {
+        assertEquals("Hello, ${name", render("Hello, ${name", new HashMap<String, Object>()));
+    }
+
+    @Test
+    public void emptyPlaceholderIsText() throws IOException {
+        assertEquals("a${}b", render("a${}b", new HashMap<String, Object>()));
+    }
+
+    @Test
+    public void nullValueRendersNothing() throws IOException {
+        Map<String, Object> model = new HashMap<String, Object>();
+        model.put("name", null);
+        assertEquals("Hello, !", render("Hello, ${name}!", model));
+        assertEquals("Hello, !", render("Hello, ${name}!", null));
+    }
+
+    @Test
+    public void resolverCachesAndReloadsInDevMode() throws IOException {
+        File template = writeTemplate("index.html", "v1 ${name}");
+        MyViewResolver resolver = new MyViewResolver(folder.getRoot(), true);
+
+        MyView first = resolver.resolveViewName("index");
+        assertSame(first, resolver.resolveViewName("index"));
+        assertNull(resolver.resolveViewName("missing"));
+
+        writeTemplate("index.html", "v2 ${name}");
+        template.setLastModified(template.lastModified() + 2000);
+        MyView reloaded = resolver.resolveViewName("index");
+        assertNotSame(first, reloaded);
+
+        Map<String, Object> model = new HashMap<String, Object>();
+        model.put("name", "Tom");
+        StringWriter out = new StringWriter();
+        reloaded.render(model, out);
+        assertEquals("v2 Tom", out.toString());
+    }
+
+    private String render(String template, Map<String, Object> model) throws IOException {
+        MyView view = new MyView(writeTemplate("test.html", template), template);
+        StringWriter out = new StringWriter();
+        view.render(model, out);
+        return out.toString();
+    }
+
+    private File writeTemplate(String name, String content) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8")) {
+            writer.write(content);
+        }
+        return file;
+    }
+}